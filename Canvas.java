@@ -7,9 +7,10 @@
  import java.awt.*;
  import javax.swing.*;
  import java.awt.image.BufferedImage;
+ import java.io.IOException;
+ import java.nio.file.Path;
  import java.util.List;
  import java.util.ArrayList;
- import java.util.Collections;
  import java.util.concurrent.*;
  import java.util.concurrent.atomic.AtomicInteger;
  
@@ -30,15 +31,47 @@
      private final double timeStep = 1.0 / 240.0;
      private final long time = 1000000000 / 60; // 60 FPS target
      private static final long FPS_UPDATE_INTERVAL = 500_000_000L; // 500 ms in nanoseconds
+     private static final int MORTON_SORT_INTERVAL = 60; // Ticks between spatial reorders
+     private static final int MAX_COLLISION_FREE_TICKS = 30; // Longest window without collision checks
+ 
+     // Wall lookahead used by Particle collision checks, in seconds
+     private static final double WALL_LOOKAHEAD = 1 / 60.0;
  
      // Particle and Wall containers
      private final List<Particle> particles = new ArrayList<>();
      private final CopyOnWriteArrayList<Wall> walls = new CopyOnWriteArrayList<>();
      private final Object particlesLock = new Object();
+     private int ticksSinceSort = MORTON_SORT_INTERVAL;
+ 
+     // Compact storage used instead of Particle objects in compact mode, otherwise null
+     private final CompactParticles compactParticles;
+ 
+     // Particles that still move; resting particles drop out after one tick
+     private final List<Particle> activeParticles = new ArrayList<>();
+ 
+     // Active set metrics from the last tick
+     private volatile int activeCount = 0;
+     private volatile int restingCount = 0;
+     private volatile int collisionSkippedCount = 0;
+ 
+     // Workers used for particle updates
+     private volatile Executor updateExecutor = ForkJoinPool.commonPool();
+     private volatile int workerCount = Runtime.getRuntime().availableProcessors(); // Use available processors
+ 
+     // Recording and replay
+     private volatile SimulationRecorder recorder;
+     private volatile ParticleSnapshot replayFrame;
+     private final AtomicInteger replayCursor = new AtomicInteger(0);
  
      // Constructor
      public Canvas(JLabel fps) {
+         this(fps, false);
+     }
+ 
+     // Constructor; compact mode keeps particles in CompactParticles instead of Particle objects
+     public Canvas(JLabel fps, boolean compact) {
          this.fps = fps;
+         this.compactParticles = compact ? new CompactParticles() : null;
          setPreferredSize(new Dimension(CANVAS_WIDTH, CANVAS_HEIGHT));
          offscreenImage = new BufferedImage(CANVAS_WIDTH, CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
      }
@@ -46,13 +79,26 @@
      // Add particle to the list
      public void addParticle(Particle particle) {
          synchronized (particlesLock) {
+             if (compactParticles != null) {
+                 compactParticles.add(particle.x, particle.y, particle.currentAngle, particle.currentVelocity);
+                 return;
+             }
+ 
              particles.add(particle);
+             activeParticles.add(particle);
          }
      }
      
      // Add wall to the list
      public void addWall(Wall wall) {
-         walls.add(wall);
+         synchronized (particlesLock) {
+             walls.add(wall);
+ 
+             // Collision-free windows were computed without this wall
+             for (Particle particle : activeParticles) {
+                 particle.collisionFreeTicks = 0;
+             }
+         }
      }
      
      // Start the simulation
@@ -62,36 +108,119 @@
          scheduler.scheduleAtFixedRate(this::repaint, 0, time, TimeUnit.NANOSECONDS);
      }
  
+     // Record every simulation tick to the given file
+     public void startRecording(Path file) throws IOException {
+         recorder = new SimulationRecorder(file, CANVAS_WIDTH, CANVAS_HEIGHT);
+     }
+ 
+     // Stop recording and flush pending frames
+     public void stopRecording() throws IOException {
+         SimulationRecorder activeRecorder = recorder;
+         recorder = null;
+ 
+         if (activeRecorder != null) {
+             activeRecorder.close();
+             System.out.printf("Recording stopped: %d frames written, %d dropped%n",
+                     activeRecorder.getCapturedFrames(), activeRecorder.getDroppedFrames());
+         }
+     }
+ 
+     // Play back a recording instead of simulating, one recorded tick per frame
+     public void startReplay(SimulationReplay replay) {
+         if (replay.canvasWidth != CANVAS_WIDTH || replay.canvasHeight != CANVAS_HEIGHT) {
+             throw new IllegalArgumentException("The recording is " + replay.canvasWidth + "x" + replay.canvasHeight
+                     + ", but the canvas is " + CANVAS_WIDTH + "x" + CANVAS_HEIGHT + ".");
+         }
+ 
+         if (replay.frameCount() == 0) return;
+ 
+         // Dropped ticks keep showing the previous frame, so playback keeps the recorded timing
+         ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+         scheduler.scheduleAtFixedRate(() -> {
+             long tick = Math.floorMod(replayCursor.getAndIncrement(), replay.lastTick() + 1);
+             try {
+                 replayFrame = replay.frame(replay.frameAtTick(tick));
+             } catch (IOException e) {
+                 e.printStackTrace();
+             }
+             repaint();
+         }, 0, time, TimeUnit.NANOSECONDS);
+     }
+ 
+     // Jump to a tick of the recording being played back
+     public void seekReplay(int tick) {
+         replayCursor.set(tick);
+     }
+ 
+     // Run particle updates on the given executor, split into the given number of batches
+     void useWorkers(Executor executor, int workerCount) {
+         this.updateExecutor = executor;
+         this.workerCount = Math.max(1, workerCount);
+     }
+ 
+     // Number of particles in the simulation
+     int particleCount() {
+         synchronized (particlesLock) {
+             return compactParticles != null ? compactParticles.size() : particles.size();
+         }
+     }
+ 
+     // Particles moved in the last tick
+     int getActiveParticleCount() {
+         return activeCount;
+     }
+ 
+     // Particles at rest, no longer updated
+     int getRestingParticleCount() {
+         return restingCount;
+     }
+ 
+     // Active particles whose collision checks were skipped in the last tick
+     int getCollisionSkippedCount() {
+         return collisionSkippedCount;
+     }
+ 
+     // Copy the current particle positions and walls
+     ParticleSnapshot snapshot() {
+         synchronized (particlesLock) {
+             return compactParticles != null ? compactParticles.snapshot(walls) : ParticleSnapshot.capture(particles, walls);
+         }
+     }
+ 
      // Update particle positions and handle collisions
-     private void updateParticles() {
-         int threadCount = Runtime.getRuntime().availableProcessors(); // Use available processors
+     void updateParticles() {
+         int threadCount = workerCount;
+         Executor executor = threadCount == 1 ? Runnable::run : updateExecutor; // A single batch runs inline
  
          synchronized (particlesLock) {
-             int particlesPerThread = particles.size() / threadCount;
+             if (compactParticles != null) {
+                 updateCompactParticles(threadCount, executor);
+                 return;
+             }
  
-             // Shuffle particles for better load balancing
-             List<Particle> shuffledParticles = new ArrayList<>(particles);
-             Collections.shuffle(shuffledParticles); 
+             int particlesPerThread = activeParticles.size() / threadCount;
+ 
+             // Periodically reorder particles along a Z-order curve so each batch is spatially coherent
+             if (++ticksSinceSort >= MORTON_SORT_INTERVAL) {
+                 MortonOrder.sort(activeParticles, threadCount, executor);
+                 ticksSinceSort = 0;
+             }
  
              // Partition particles into batches for parallel processing
              List<List<Particle>> particleBatches = new ArrayList<>();
  
              for (int i = 0; i < threadCount; i++) {
                  int startIndex = i * particlesPerThread;
-                 int endIndex = (i == threadCount - 1) ? particles.size() : (i + 1) * particlesPerThread;
-                 particleBatches.add(shuffledParticles.subList(startIndex, endIndex));
+                 int endIndex = (i == threadCount - 1) ? activeParticles.size() : (i + 1) * particlesPerThread;
+                 particleBatches.add(activeParticles.subList(startIndex, endIndex));
              }
  
              // Use CompletableFuture for asynchronous processing
              List<CompletableFuture<Void>> futures = new ArrayList<>();
+             AtomicInteger skipped = new AtomicInteger(0);
  
              for (List<Particle> particleBatch : particleBatches) {
-                 futures.add(CompletableFuture.runAsync(() -> {
-                     for (Particle particle : particleBatch) {
-                         particle.updatePosition(timeStep);
-                         particle.handleWallCollision(CANVAS_WIDTH, CANVAS_HEIGHT, walls);
-                     }
-                 }));
+                 futures.add(CompletableFuture.runAsync(() -> skipped.addAndGet(updateBatch(particleBatch)), executor));
              }
  
              // Wait for all particle updates to complete
@@ -102,9 +231,96 @@
              } catch (InterruptedException | ExecutionException e) {
                  e.printStackTrace();
              }
+ 
+             activeCount = activeParticles.size();
+             collisionSkippedCount = skipped.get();
+ 
+             // Velocity never changes, so particles at rest after a full tick stay at rest
+             activeParticles.removeIf(particle -> particle.currentVelocity == 0);
+             restingCount = particles.size() - activeParticles.size();
+ 
+             // Hand the new state to the recorder, if any
+             SimulationRecorder activeRecorder = recorder;
+             if (activeRecorder != null) {
+                 activeRecorder.capture(ParticleSnapshot.capture(particles, walls));
+             }
          }
      }
      
+     // Step the compact particle arrays; the active set and Morton reordering only apply to Particle objects
+     private void updateCompactParticles(int threadCount, Executor executor) {
+         compactParticles.step(timeStep, CANVAS_WIDTH, CANVAS_HEIGHT, walls, threadCount, executor);
+         activeCount = compactParticles.size();
+ 
+         SimulationRecorder activeRecorder = recorder;
+         if (activeRecorder != null) {
+             activeRecorder.capture(compactParticles.snapshot(walls));
+         }
+     }
+ 
+     // Move one batch of particles and resolve their collisions; returns the number of skipped collision checks
+     private int updateBatch(List<Particle> particleBatch) {
+         List<Wall> nearbyWalls = new ArrayList<>();
+         List<Wall> windowWalls = new ArrayList<>();
+         wallsNear(particleBatch, nearbyWalls, windowWalls);
+         int skipped = 0;
+ 
+         for (Particle particle : particleBatch) {
+             particle.updatePosition(timeStep);
+ 
+             // Far from every wall: no collision is possible until the window expires
+             if (particle.collisionFreeTicks > 0) {
+                 particle.collisionFreeTicks--;
+                 skipped++;
+                 continue;
+             }
+ 
+             particle.handleWallCollision(CANVAS_WIDTH, CANVAS_HEIGHT, nearbyWalls);
+             particle.collisionFreeTicks = particle.ticksWithoutCollision(CANVAS_WIDTH, CANVAS_HEIGHT, windowWalls, timeStep, MAX_COLLISION_FREE_TICKS);
+         }
+ 
+         return skipped;
+     }
+ 
+     // Collects the walls any particle in the batch could reach during this tick, and during
+     // the longest collision-free window, so the window scan stays local to the batch
+     private void wallsNear(List<Particle> batch, List<Wall> nearbyWalls, List<Wall> windowWalls) {
+         if (batch.isEmpty() || walls.isEmpty()) return;
+ 
+         int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+         int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+         double maxVelocity = 0;
+ 
+         for (Particle particle : batch) {
+             minX = Math.min(minX, particle.x);
+             minY = Math.min(minY, particle.y);
+             maxX = Math.max(maxX, particle.x);
+             maxY = Math.max(maxY, particle.y);
+             maxVelocity = Math.max(maxVelocity, Math.abs(particle.currentVelocity));
+         }
+ 
+         // Movement this tick plus the collision lookahead, with a pixel of rounding slack on each
+         double reach = maxVelocity * (timeStep + WALL_LOOKAHEAD) + 2;
+ 
+         // Movement over the longest window plus the lookahead, the sub-pixel shift and Particle's slack of 3
+         double windowReach = maxVelocity * (MAX_COLLISION_FREE_TICKS * timeStep + WALL_LOOKAHEAD) + 4;
+ 
+         for (Wall wall : walls) {
+             if (withinReach(wall, minX, minY, maxX, maxY, windowReach)) {
+                 windowWalls.add(wall);
+                 if (withinReach(wall, minX, minY, maxX, maxY, reach)) {
+                     nearbyWalls.add(wall);
+                 }
+             }
+         }
+     }
+ 
+     // Checks if the wall's bounding box overlaps the given box grown by reach
+     private static boolean withinReach(Wall wall, int minX, int minY, int maxX, int maxY, double reach) {
+         return Math.max(wall.x1, wall.x2) >= minX - reach && Math.min(wall.x1, wall.x2) <= maxX + reach
+                 && Math.max(wall.y1, wall.y2) >= minY - reach && Math.min(wall.y1, wall.y2) <= maxY + reach;
+     }
+ 
      // Render particles and walls on the canvas
      @Override
      protected void paintComponent(Graphics g) {
@@ -114,6 +330,28 @@
          g2d.setColor(Color.BLACK);
          g2d.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
  
+         ParticleSnapshot frame = replayFrame;
+         if (frame != null) {
+             renderSnapshot(g2d, frame);
+         } else if (compactParticles != null) {
+             renderSnapshot(g2d, snapshot());
+         } else {
+             renderParticles(g2d);
+         }
+ 
+         g2d.dispose();
+         g.drawImage(offscreenImage, 0, 0, this);
+ 
+         // Draw canvas border
+         g.setColor(Color.BLACK);
+         g.drawRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+ 
+         // Update and display FPS
+         updateFPS();
+     }
+ 
+     // Render the live particles and walls
+     private void renderParticles(Graphics2D g2d) {
          // Load balancing for rendering particles
          synchronized (particlesLock) {
              AtomicInteger counter = new AtomicInteger(0);
@@ -132,16 +370,28 @@
              g2d.setColor(Color.YELLOW);
              g2d.drawLine(wall.x1, CANVAS_HEIGHT - wall.y1, wall.x2, CANVAS_HEIGHT - wall.y2);
          }
+     }
  
+     // Render a snapshot into an offscreen image, without a display
+     void renderFrame(BufferedImage image, ParticleSnapshot frame) {
+         Graphics2D g2d = image.createGraphics();
+         g2d.setColor(Color.BLACK);
+         g2d.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+         renderSnapshot(g2d, frame);
          g2d.dispose();
-         g.drawImage(offscreenImage, 0, 0, this);
+     }
  
-         // Draw canvas border
-         g.setColor(Color.BLACK);
-         g.drawRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+     // Render a recorded frame
+     private void renderSnapshot(Graphics2D g2d, ParticleSnapshot frame) {
+         g2d.setColor(Color.WHITE);
+         for (int i = 0; i < frame.count; i++) {
+             g2d.fillOval(frame.xs[i], CANVAS_HEIGHT - frame.ys[i] - 5, 5, 5);
+         }
  
-         // Update and display FPS
-         updateFPS();
+         g2d.setColor(Color.YELLOW);
+         for (int i = 0; i < frame.walls.length; i += 4) {
+             g2d.drawLine(frame.walls[i], CANVAS_HEIGHT - frame.walls[i + 1], frame.walls[i + 2], CANVAS_HEIGHT - frame.walls[i + 3]);
+         }
      }
  
      // Update and display FPS
@@ -0,0 +1,108 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+ import java.util.Random;
+ import java.util.concurrent.CopyOnWriteArrayList;
+
+ /***
+  * Runs the same particles through Particle and CompactParticles
+  * and reports how far the compact positions drift from the double
+  * precision ones over time, along with the update cost of each.
+  * Both follow the same movement and collision rules, so the drift
+  * comes from float precision alone.
+  *
+  * Usage: java CompactParticleAccuracy [particles] [ticks] [seed]
+  */
+ class CompactParticleAccuracy {
+    private static final int CANVAS_WIDTH = 1280;
+    private static final int CANVAS_HEIGHT = 720;
+    private static final double TIME_STEP = 1.0 / 240.0;
+
+    // Ticks at which errors are reported
+    private static final int[] CHECKPOINTS = {60, 240, 600, 1200, 2400, 6000};
+
+    // Distance beyond which a particle counts as diverged
+    private static final double DIVERGED_PIXELS = 5.0;
+
+    public static void main(String[] args) {
+        int particleCount = Math.max(1, args.length > 0 ? Integer.parseInt(args[0]) : 10_000);
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 6000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        Random random = new Random(seed);
+        List<Particle> particles = new ArrayList<>();
+        CompactParticles compact = new CompactParticles();
+
+        for (int i = 0; i < particleCount; i++) {
+            int x = 10 + random.nextInt(CANVAS_WIDTH - 20);
+            int y = 10 + random.nextInt(CANVAS_HEIGHT - 20);
+            double angle = random.nextDouble() * 360;
+            double velocity = random.nextDouble() * 1000;
+
+            particles.add(new Particle(x, y, angle, velocity));
+            compact.add(x, y, angle, velocity);
+        }
+
+        CopyOnWriteArrayList<Wall> walls = new CopyOnWriteArrayList<>();
+        walls.add(new Wall(200, 100, 900, 600));
+        walls.add(new Wall(1000, 100, 1100, 650));
+
+        System.out.printf("Particles: %d, bytes per particle: compact %d, Particle ~56%n",
+                particleCount, CompactParticles.bytesPerParticle());
+        System.out.printf("%8s %12s %12s %12s %12s%n", "tick", "mean px", "p95 px", "max px", "diverged");
+
+        long particleNanos = 0;
+        long compactNanos = 0;
+        int checkpoint = 0;
+
+        for (int tick = 1; tick <= ticks; tick++) {
+            long start = System.nanoTime();
+            for (Particle particle : particles) {
+                particle.updatePosition(TIME_STEP);
+                particle.handleWallCollision(CANVAS_WIDTH, CANVAS_HEIGHT, walls);
+            }
+            particleNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            compact.step(TIME_STEP, CANVAS_WIDTH, CANVAS_HEIGHT, walls, 1, Runnable::run);
+            compactNanos += System.nanoTime() - start;
+
+            if (checkpoint < CHECKPOINTS.length && tick == CHECKPOINTS[checkpoint]) {
+                reportErrors(tick, particles, compact);
+                checkpoint++;
+            }
+        }
+
+        double totalUpdates = (double) ticks * particleCount;
+        System.out.printf("Update cost: Particle %.2f ns, compact %.2f ns per particle per tick%n",
+                particleNanos / totalUpdates, compactNanos / totalUpdates);
+    }
+
+    // Prints error statistics between the two representations
+    private static void reportErrors(int tick, List<Particle> particles, CompactParticles compact) {
+        double[] errors = new double[particles.size()];
+        double sum = 0;
+        int diverged = 0;
+
+        for (int i = 0; i < errors.length; i++) {
+            Particle particle = particles.get(i);
+            double dx = particle.x + particle.cumulativeShiftX - compact.exactX(i);
+            double dy = particle.y + particle.cumulativeShiftY - compact.exactY(i);
+            errors[i] = Math.sqrt(dx * dx + dy * dy);
+
+            sum += errors[i];
+            if (errors[i] > DIVERGED_PIXELS) diverged++;
+        }
+
+        Arrays.sort(errors);
+        double p95 = errors[Math.min(errors.length - 1, (int) (errors.length * 0.95))];
+        System.out.printf("%8d %12.3f %12.3f %12.3f %11.2f%%%n", tick, sum / errors.length, p95,
+                errors[errors.length - 1], 100.0 * diverged / errors.length);
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.util.ArrayList;
+ import java.util.Arrays;
+ import java.util.List;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.Executor;
+
+ /***
+  * Reduced-precision particle storage. Each particle keeps its pixel
+  * position as ints, its sub-pixel shift as floats and its velocity
+  * as float x and y components, in parallel arrays: 24 bytes per
+  * particle, against roughly 56 for a Particle object and its
+  * reference. Movement, rounding and collision handling reproduce
+  * Particle step for step, including its canvas edge checks, so the
+  * only difference is float instead of double precision. Compare
+  * the two with CompactParticleAccuracy.
+  */
+ class CompactParticles {
+    // Same collision constants as Particle
+    private static final int PARTICLE_DIAMETER = 5;
+    private static final int BUFFER = 1;
+    private static final float WALL_LOOKAHEAD = 1 / 60.0f;
+
+    // Pixel positions
+    private int[] posX = new int[64];
+    private int[] posY = new int[64];
+
+    // Sub-pixel movement not yet applied to the pixel position
+    private float[] shiftX = new float[64];
+    private float[] shiftY = new float[64];
+
+    // Velocity components (pixels / s)
+    private float[] velX = new float[64];
+    private float[] velY = new float[64];
+
+    private int size = 0;
+
+    // Adds a particle with the same parameters as the Particle constructor
+    public void add(int x, int y, double angle, double velocity) {
+        if (size == posX.length) {
+            int capacity = size * 2;
+            posX = Arrays.copyOf(posX, capacity);
+            posY = Arrays.copyOf(posY, capacity);
+            shiftX = Arrays.copyOf(shiftX, capacity);
+            shiftY = Arrays.copyOf(shiftY, capacity);
+            velX = Arrays.copyOf(velX, capacity);
+            velY = Arrays.copyOf(velY, capacity);
+        }
+
+        double radians = Math.toRadians(angle);
+        posX[size] = x;
+        posY[size] = y;
+        shiftX[size] = 0;
+        shiftY[size] = 0;
+        velX[size] = (float) (velocity * Math.cos(radians));
+        velY[size] = (float) (velocity * Math.sin(radians));
+        size++;
+    }
+
+    // Number of particles
+    public int size() {
+        return size;
+    }
+
+    // Pixel x-coordinate of a particle
+    public int x(int index) {
+        return posX[index];
+    }
+
+    // Pixel y-coordinate of a particle
+    public int y(int index) {
+        return posY[index];
+    }
+
+    // Position including the sub-pixel shift
+    public double exactX(int index) {
+        return posX[index] + (double) shiftX[index];
+    }
+
+    // Position including the sub-pixel shift
+    public double exactY(int index) {
+        return posY[index] + (double) shiftY[index];
+    }
+
+    // Bytes used per particle by the arrays
+    public static int bytesPerParticle() {
+        return Integer.BYTES * 2 + Float.BYTES * 4;
+    }
+
+    // Copies pixel positions for rendering or recording
+    public ParticleSnapshot snapshot(List<Wall> walls) {
+        return new ParticleSnapshot(size, Arrays.copyOf(posX, size), Arrays.copyOf(posY, size), ParticleSnapshot.packWalls(walls));
+    }
+
+    // Advances every particle by one time step, split into the given number of batches
+    public void step(double deltaTime, int canvasWidth, int canvasHeight, List<Wall> walls, int threadCount, Executor executor) {
+        Wall[] wallArray = walls.toArray(new Wall[0]);
+        int chunkCount = Math.max(1, Math.min(threadCount, size));
+
+        if (chunkCount == 1) {
+            stepRange(0, size, (float) deltaTime, canvasWidth, canvasHeight, wallArray);
+            return;
+        }
+
+        int perChunk = size / chunkCount;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (int i = 0; i < chunkCount; i++) {
+            int start = i * perChunk;
+            int end = (i == chunkCount - 1) ? size : (i + 1) * perChunk;
+            futures.add(CompletableFuture.runAsync(() ->
+                    stepRange(start, end, (float) deltaTime, canvasWidth, canvasHeight, wallArray), executor));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    // Updates the particles in [start, end)
+    private void stepRange(int start, int end, float deltaTime, int canvasWidth, int canvasHeight, Wall[] walls) {
+        for (int i = start; i < end; i++) {
+            updatePosition(i, deltaTime);
+            handleCanvasCollision(i, canvasWidth, canvasHeight);
+            handleWallCollisions(i, walls);
+        }
+    }
+
+    // Accumulates movement and applies it once either axis reaches a whole pixel, as Particle does
+    private void updatePosition(int i, float deltaTime) {
+        shiftX[i] += velX[i] * deltaTime;
+        shiftY[i] += velY[i] * deltaTime;
+
+        if (Math.abs(shiftX[i]) >= 1.0f || Math.abs(shiftY[i]) >= 1.0f) {
+            int roundedX = Math.round(shiftX[i]);
+            int roundedY = Math.round(shiftY[i]);
+            posX[i] += roundedX;
+            posY[i] += roundedY;
+            shiftX[i] -= roundedX;
+            shiftY[i] -= roundedY;
+        }
+    }
+
+    // Reflects off the canvas boundaries with Particle's edge tests and clamping
+    private void handleCanvasCollision(int i, int canvasWidth, int canvasHeight) {
+        if (posX[i] - shiftX[i] <= 0 || posX[i] + PARTICLE_DIAMETER + shiftX[i] >= canvasWidth) {
+            velX[i] = -velX[i];
+            moveInsideCanvas(i, canvasWidth);
+        }
+
+        if (posY[i] + PARTICLE_DIAMETER + shiftY[i] >= canvasHeight || posY[i] - shiftY[i] <= 0) {
+            velY[i] = -velY[i];
+            moveInsideCanvas(i, canvasHeight);
+        }
+    }
+
+    // Same clamping as Particle.moveInsideCanvas, including its fixed 1280 x 720 targets
+    private void moveInsideCanvas(int i, int limitY) {
+        int canvasWidth = 1280;
+        if (posX[i] <= 0) {
+            posX[i] = BUFFER;
+        } else if (posX[i] + PARTICLE_DIAMETER >= canvasWidth) {
+            posX[i] = canvasWidth - PARTICLE_DIAMETER - BUFFER;
+        }
+
+        if (posY[i] <= 0) {
+            posY[i] = BUFFER;
+        } else if (posY[i] + PARTICLE_DIAMETER >= limitY) {
+            posY[i] = 720 - PARTICLE_DIAMETER - BUFFER;
+        }
+    }
+
+    // Reflects the velocity off every wall crossed by the lookahead segment
+    private void handleWallCollisions(int i, Wall[] walls) {
+        for (Wall wall : walls) {
+            float x1 = posX[i];
+            float y1 = posY[i];
+            float x2 = x1 + velX[i] * WALL_LOOKAHEAD;
+            float y2 = y1 + velY[i] * WALL_LOOKAHEAD;
+
+            float denominator = (x1 - x2) * (wall.y1 - wall.y2) - (y1 - y2) * (wall.x1 - wall.x2);
+            if (denominator == 0) continue;
+
+            float t = ((x1 - wall.x1) * (wall.y1 - wall.y2) - (y1 - wall.y1) * (wall.x1 - wall.x2)) / denominator;
+            float u = ((x2 - x1) * (y1 - wall.y1) - (y2 - y1) * (x1 - wall.x1)) / denominator;
+
+            if (t >= 0 && t <= 1 && u >= 0 && u <= 1) {
+                reflectOffWall(i, wall);
+            }
+        }
+    }
+
+    // Reflects the velocity about the wall normal
+    private void reflectOffWall(int i, Wall wall) {
+        float normalX = wall.y2 - wall.y1;
+        float normalY = -(wall.x2 - wall.x1);
+        float length = (float) Math.sqrt(normalX * normalX + normalY * normalY);
+        normalX /= length;
+        normalY /= length;
+
+        float dotProduct = velX[i] * normalX + velY[i] * normalY;
+        velX[i] -= 2 * dotProduct * normalX;
+        velY[i] -= 2 * dotProduct * normalY;
+    }
+}
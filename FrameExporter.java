@@ -0,0 +1,165 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import javax.imageio.ImageIO;
+ import java.awt.image.BufferedImage;
+ import java.io.BufferedOutputStream;
+ import java.io.ByteArrayOutputStream;
+ import java.io.IOException;
+ import java.io.OutputStream;
+ import java.io.UncheckedIOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.concurrent.*;
+
+ /***
+  * Exports a simulation without a display. Each frame advances the
+  * simulation by one tick, the same rate as the live 60 FPS loop.
+  * Simulation, rasterization and encoding run on separate threads
+  * and overlap; a fixed number of frames may be in flight at once.
+  *
+  * PNG output writes frame_000000.png, frame_000001.png, ... into
+  * the output directory. RAW output writes consecutive rgb24 frames
+  * into a single file, e.g. for
+  *   ffmpeg -f rawvideo -pix_fmt rgb24 -s 1280x720 -r 60 -i out.rgb out.mp4
+  */
+ class FrameExporter {
+    enum Format { PNG, RAW }
+
+    private final Canvas canvas;
+    private final Path output;
+    private final Format format;
+    private final int encoderThreads;
+
+    // Constructor to initialize export settings
+    public FrameExporter(Canvas canvas, Path output, Format format, int encoderThreads) {
+        this.canvas = canvas;
+        this.output = output;
+        this.format = format;
+        this.encoderThreads = Math.max(1, encoderThreads);
+    }
+
+    // Simulates and exports the given number of frames
+    public void export(int frameCount) throws IOException {
+        int maxInFlight = encoderThreads * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        BlockingQueue<BufferedImage> imagePool = new ArrayBlockingQueue<>(maxInFlight);
+
+        ExecutorService rasterizer = Executors.newSingleThreadExecutor();
+        ExecutorService encoders = Executors.newFixedThreadPool(encoderThreads);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+
+        OutputStream rawOut = null;
+        if (format == Format.RAW) {
+            rawOut = new BufferedOutputStream(Files.newOutputStream(output), 1 << 20);
+        } else {
+            Files.createDirectories(output);
+        }
+        OutputStream stream = rawOut;
+
+        // Frames are written strictly in order by chaining onto the previous write
+        CompletableFuture<Void> writeChain = CompletableFuture.completedFuture(null);
+
+        try {
+            for (int i = 0; i < frameCount && !writeChain.isCompletedExceptionally(); i++) {
+                inFlight.acquire();
+
+                canvas.updateParticles();
+                ParticleSnapshot snapshot = canvas.snapshot();
+                int frameIndex = i;
+
+                CompletableFuture<byte[]> encoded = CompletableFuture
+                        .supplyAsync(() -> rasterize(snapshot, imagePool), rasterizer)
+                        .thenApplyAsync(image -> encodeAndRecycle(image, imagePool), encoders);
+
+                writeChain = writeChain
+                        .thenCombineAsync(encoded, (previous, bytes) -> {
+                            write(frameIndex, bytes, stream);
+                            return (Void) null;
+                        }, writer)
+                        .whenComplete((result, error) -> inFlight.release());
+            }
+
+            writeChain.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        } finally {
+            rasterizer.shutdownNow();
+            encoders.shutdownNow();
+            writer.shutdownNow();
+
+            if (rawOut != null) {
+                rawOut.close();
+            }
+        }
+    }
+
+    // Draws the snapshot into a pooled offscreen image
+    private BufferedImage rasterize(ParticleSnapshot snapshot, BlockingQueue<BufferedImage> imagePool) {
+        BufferedImage image = imagePool.poll();
+        if (image == null) {
+            image = new BufferedImage(canvas.CANVAS_WIDTH, canvas.CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        canvas.renderFrame(image, snapshot);
+        return image;
+    }
+
+    // Encodes the image and returns it to the pool
+    private byte[] encodeAndRecycle(BufferedImage image, BlockingQueue<BufferedImage> imagePool) {
+        try {
+            return format == Format.PNG ? encodePng(image) : encodeRgb(image);
+        } finally {
+            imagePool.offer(image);
+        }
+    }
+
+    // Compresses the image as PNG
+    private byte[] encodePng(BufferedImage image) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Converts the image to packed rgb24 bytes
+    private byte[] encodeRgb(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        byte[] rgb = new byte[pixels.length * 3];
+
+        for (int i = 0; i < pixels.length; i++) {
+            rgb[i * 3] = (byte) (pixels[i] >> 16);
+            rgb[i * 3 + 1] = (byte) (pixels[i] >> 8);
+            rgb[i * 3 + 2] = (byte) pixels[i];
+        }
+
+        return rgb;
+    }
+
+    // Writes one encoded frame to its destination
+    private void write(int frameIndex, byte[] bytes, OutputStream rawOut) {
+        try {
+            if (format == Format.RAW) {
+                rawOut.write(bytes);
+            } else {
+                Files.write(output.resolve(String.format("frame_%06d.png", frameIndex)), bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
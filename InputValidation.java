@@ -0,0 +1,32 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ class InputValidation {
+    // Valid coordinate ranges for particles and walls
+    static final int MAX_X = 1280;
+    static final int MAX_Y = 720;
+
+    private InputValidation() {
+    }
+
+    // Validates the number of particles to add
+    static void checkParticleCount(int n) {
+        if (n < 1) throw new IllegalArgumentException("There must be at least 1 particle.");
+    }
+
+    // Validates that every given point lies on the canvas
+    static void checkPoints(int... coordinates) {
+        for (int i = 0; i + 1 < coordinates.length; i += 2) {
+            int x = coordinates[i];
+            int y = coordinates[i + 1];
+
+            if (x < 0 || x > MAX_X || y < 0 || y > MAX_Y) {
+                throw new IllegalArgumentException("Ensure that X falls within the range of 0 to " + MAX_X
+                        + ", and Y falls within the range of 0 to " + MAX_Y + ".");
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.util.ArrayList;
+ import java.util.List;
+ import java.util.concurrent.CompletableFuture;
+ import java.util.concurrent.Executor;
+
+ /***
+  * Sorts particles along a Z-order (Morton) curve of their
+  * position, so that particles close together on the canvas are
+  * also close together in the list. Uses a parallel LSD radix sort
+  * over the interleaved x and y bits.
+  */
+ class MortonOrder {
+    // 11 bits per axis covers coordinates up to 2047
+    private static final int AXIS_BITS = 11;
+    private static final int AXIS_MAX = (1 << AXIS_BITS) - 1;
+    private static final int KEY_BITS = AXIS_BITS * 2;
+
+    // Radix sort digit size
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private MortonOrder() {
+    }
+
+    // Computes the Morton key of a position
+    static int key(int x, int y) {
+        return spreadBits(clamp(x)) | (spreadBits(clamp(y)) << 1);
+    }
+
+    // Clamps a coordinate to the range covered by the key
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(AXIS_MAX, value));
+    }
+
+    // Inserts a zero bit between each of the lower 16 bits
+    private static int spreadBits(int value) {
+        value &= 0x0000FFFF;
+        value = (value | (value << 8)) & 0x00FF00FF;
+        value = (value | (value << 4)) & 0x0F0F0F0F;
+        value = (value | (value << 2)) & 0x33333333;
+        value = (value | (value << 1)) & 0x55555555;
+        return value;
+    }
+
+    // Reorders the list in place by Morton key, using the given number of threads
+    static void sort(List<Particle> particles, int threadCount, Executor executor) {
+        int size = particles.size();
+        if (size < 2) return;
+
+        int chunkCount = Math.max(1, Math.min(threadCount, size));
+        int[] keys = new int[size];
+        int[] order = new int[size];
+        int[] scratchKeys = new int[size];
+        int[] scratchOrder = new int[size];
+
+        runChunks(executor, chunkCount, size, (chunk, start, end) -> {
+            for (int i = start; i < end; i++) {
+                Particle particle = particles.get(i);
+                keys[i] = key(particle.x, particle.y);
+                order[i] = i;
+            }
+        });
+
+        // One pass per digit; buffers swap roles after each pass
+        int[] srcKeys = keys, srcOrder = order, dstKeys = scratchKeys, dstOrder = scratchOrder;
+        for (int shift = 0; shift < KEY_BITS; shift += RADIX_BITS) {
+            radixPass(srcKeys, srcOrder, dstKeys, dstOrder, shift, chunkCount, executor);
+
+            int[] tmpKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tmpKeys;
+
+            int[] tmpOrder = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = tmpOrder;
+        }
+
+        List<Particle> sorted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            sorted.add(particles.get(srcOrder[i]));
+        }
+
+        for (int i = 0; i < size; i++) {
+            particles.set(i, sorted.get(i));
+        }
+    }
+
+    // Stable counting pass on one digit, with per-chunk histograms
+    private static void radixPass(int[] srcKeys, int[] srcOrder, int[] dstKeys, int[] dstOrder, int shift, int chunkCount, Executor executor) {
+        int size = srcKeys.length;
+        int[][] histograms = new int[chunkCount][RADIX];
+
+        runChunks(executor, chunkCount, size, (chunk, start, end) -> {
+            int[] histogram = histograms[chunk];
+            for (int i = start; i < end; i++) {
+                histogram[(srcKeys[i] >>> shift) & (RADIX - 1)]++;
+            }
+        });
+
+        // Convert counts into starting offsets, digit-major then chunk-major
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int count = histograms[chunk][digit];
+                histograms[chunk][digit] = offset;
+                offset += count;
+            }
+        }
+
+        runChunks(executor, chunkCount, size, (chunk, start, end) -> {
+            int[] offsets = histograms[chunk];
+            for (int i = start; i < end; i++) {
+                int destination = offsets[(srcKeys[i] >>> shift) & (RADIX - 1)]++;
+                dstKeys[destination] = srcKeys[i];
+                dstOrder[destination] = srcOrder[i];
+            }
+        });
+    }
+
+    // Work on one contiguous range of the input
+    private interface ChunkTask {
+        void run(int chunk, int start, int end);
+    }
+
+    // Splits [0, size) into contiguous chunks and runs them in parallel
+    private static void runChunks(Executor executor, int chunkCount, int size, ChunkTask task) {
+        if (chunkCount == 1) {
+            task.run(0, 0, size);
+            return;
+        }
+
+        int perChunk = size / chunkCount;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (int i = 0; i < chunkCount; i++) {
+            int chunk = i;
+            int start = i * perChunk;
+            int end = (i == chunkCount - 1) ? size : (i + 1) * perChunk;
+            futures.add(CompletableFuture.runAsync(() -> task.run(chunk, start, end), executor));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+}
@@ -4,7 +4,7 @@
  * Jaira Millicent M. Santos
  */
 
- import java.util.concurrent.CopyOnWriteArrayList;
+ import java.util.List;
  class Particle {
     // Coordinates
     int x; // x-coordinate
@@ -18,6 +18,9 @@
     double cumulativeShiftX = 0.0; 
     double cumulativeShiftY = 0.0; 
 
+    // Remaining ticks in which no collision is possible
+    int collisionFreeTicks = 0;
+
     // Constructor to initialize particle properties
     public Particle(int initialX, int initialY, double initialAngle, double initialVelocity) {
         x = initialX;
@@ -81,7 +84,7 @@
     }
 
     // Handles wall collision and updates particle's position and angle
-    public void handleWallCollision(int canvasWidth, int canvasHeight, CopyOnWriteArrayList<Wall> walls) {
+    public void handleWallCollision(int canvasWidth, int canvasHeight, List<Wall> walls) {
         int particleDiameter = 5;
         int buffer = 1;
 
@@ -91,6 +94,57 @@
         normalizeAngle();
     }
 
+    // Counts the ticks in which the particle cannot reach the canvas edge or any wall, up to maxTicks;
+    // walls only needs the walls the particle could reach within maxTicks
+    public int ticksWithoutCollision(int canvasWidth, int canvasHeight, List<Wall> walls, double deltaTime, int maxTicks) {
+        double speed = Math.abs(currentVelocity);
+        if (speed == 0) return maxTicks;
+
+        // Slack for the pixel rounding of x and y and the shift terms in the collision checks
+        double slack = 3.0;
+        double positionX = x + cumulativeShiftX;
+        double positionY = y + cumulativeShiftY;
+        int particleDiameter = 5;
+
+        double clearance = Math.min(
+                Math.min(positionX, canvasWidth - (positionX + particleDiameter)),
+                Math.min(positionY, canvasHeight - (positionY + particleDiameter)));
+
+        // Wall checks look ahead 1/60 s from the current position
+        double wallLookahead = speed * (1 / 60.0);
+
+        // A wall within one tick of movement means no window, so stop scanning as soon as one is found
+        double oneTick = wallLookahead + slack + speed * deltaTime;
+        double nearestSquared = Double.MAX_VALUE;
+        for (Wall wall : walls) {
+            nearestSquared = Math.min(nearestSquared, distanceToWallSquared(positionX, positionY, wall));
+            if (nearestSquared < oneTick * oneTick) return 0;
+        }
+
+        if (nearestSquared != Double.MAX_VALUE) {
+            clearance = Math.min(clearance, Math.sqrt(nearestSquared) - wallLookahead);
+        }
+
+        double ticks = (clearance - slack) / (speed * deltaTime);
+        return ticks <= 0 ? 0 : (int) Math.min(maxTicks, ticks);
+    }
+
+    // Calculates the squared distance from a point to a wall segment
+    private double distanceToWallSquared(double px, double py, Wall wall) {
+        double wallDx = wall.x2 - wall.x1;
+        double wallDy = wall.y2 - wall.y1;
+        double lengthSquared = wallDx * wallDx + wallDy * wallDy;
+
+        double t = lengthSquared == 0 ? 0 : ((px - wall.x1) * wallDx + (py - wall.y1) * wallDy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        double closestX = wall.x1 + t * wallDx;
+        double closestY = wall.y1 + t * wallDy;
+        double dx = px - closestX;
+        double dy = py - closestY;
+        return dx * dx + dy * dy;
+    }
+
     // Handles collision with canvas boundaries
     private void handleCanvasCollision(int canvasWidth, int canvasHeight, int diameter, int buffer) {
         if (x - cumulativeShiftX <= 0 || x + diameter + cumulativeShiftX >= canvasWidth) {
@@ -131,7 +185,7 @@
     }
 
     // Handles collisions with walls
-    private void handleWallCollisions(CopyOnWriteArrayList<Wall> walls) {
+    private void handleWallCollisions(List<Wall> walls) {
         for (Wall wall : walls) {
             if (checkCollisionWithWall(wall)) {
                 reflectOffWall(wall);
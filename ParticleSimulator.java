@@ -9,14 +9,41 @@
  import javax.swing.border.CompoundBorder;
  import javax.swing.border.TitledBorder;
  import java.awt.*;
+ import java.io.IOException;
+ import java.nio.file.Path;
+ import java.nio.file.Paths;
+ import java.util.HashMap;
+ import java.util.Map;
  
  public class ParticleSimulator {
-     public static void main(String[] args) {
+     public static void main(String[] args) throws IOException {
+         // Optional arguments, given as --name value pairs or --flag switches
+         Map<String, String> options = parseOptions(args);
+ 
+         if (options.containsKey("--export")) {
+             exportHeadless(options);
+             return;
+         }
+ 
+         if (options.containsKey("--host")) {
+             hostHeadless(options);
+             return;
+         }
+ 
+         Path recordFile = options.containsKey("--record") ? Paths.get(options.get("--record")) : null;
+         Path replayFile = options.containsKey("--replay") ? Paths.get(options.get("--replay")) : null;
+ 
          JFrame frame = createAndConfigureFrame();
  
          JLabel fpsLabel = createFPSLabel();
-         Canvas canvas = new Canvas(fpsLabel);
-         JPanel inputPanel = createInputPanel(canvas);
+         Canvas canvas = new Canvas(fpsLabel, options.containsKey("--compact"));
+         SimulationReplay replay = replayFile != null ? new SimulationReplay(replayFile) : null;
+ 
+         if (options.containsKey("--scenario")) {
+             ScenarioLoader.load(Paths.get(options.get("--scenario")), canvas);
+         }
+
+         JPanel inputPanel = replay != null ? createReplayPanel(canvas, replay) : createInputPanel(canvas);
  
          JPanel mainPanel = new JPanel(new BorderLayout()) {
              @Override
@@ -35,9 +62,101 @@
          frame.setResizable(false);
          frame.setVisible(true);
  
+         if (replay != null) {
+             try {
+                 canvas.startReplay(replay);
+             } catch (IllegalArgumentException ex) {
+                 JOptionPane.showMessageDialog(frame, ex.getMessage());
+                 System.exit(1);
+             }
+             return;
+         }
+ 
+         if (recordFile != null) {
+             canvas.startRecording(recordFile);
+ 
+             // Flush the recording when the window is closed
+             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                 try {
+                     canvas.stopRecording();
+                 } catch (IOException e) {
+                     e.printStackTrace();
+                 }
+             }));
+         }
+ 
          canvas.startSimulation();
      }
  
+     // Collect --name value pairs from the command line; a --flag without a value maps to "true"
+     private static Map<String, String> parseOptions(String[] args) {
+         Map<String, String> options = new HashMap<>();
+         for (int i = 0; i < args.length; i++) {
+             if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                 options.put(args[i], args[++i]);
+             } else {
+                 options.put(args[i], "true");
+             }
+         }
+         return options;
+     }
+ 
+     // Run a scenario without a display and export its frames
+     private static void exportHeadless(Map<String, String> options) throws IOException {
+         System.setProperty("java.awt.headless", "true");
+ 
+         Canvas canvas = new Canvas(new JLabel(), options.containsKey("--compact"));
+         if (options.containsKey("--scenario")) {
+             ScenarioLoader.load(Paths.get(options.get("--scenario")), canvas);
+         }
+ 
+         Path output = Paths.get(options.get("--export"));
+         int frames = Integer.parseInt(options.getOrDefault("--frames", "600"));
+         FrameExporter.Format format = FrameExporter.Format.valueOf(options.getOrDefault("--format", "png").toUpperCase());
+         int encoders = Integer.parseInt(options.getOrDefault("--encoders", String.valueOf(Runtime.getRuntime().availableProcessors())));
+ 
+         long start = System.nanoTime();
+         new FrameExporter(canvas, output, format, encoders).export(frames);
+         double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+ 
+         System.out.printf("Exported %d frames to %s in %.2f s (%.2f frames/s)%n", frames, output, seconds, frames / seconds);
+     }
+ 
+     // Run several scenarios side by side on one shared host, printing metrics every second
+     private static void hostHeadless(Map<String, String> options) throws IOException {
+         System.setProperty("java.awt.headless", "true");
+ 
+         int workers = Integer.parseInt(options.getOrDefault("--workers", String.valueOf(Runtime.getRuntime().availableProcessors())));
+         int seconds = Integer.parseInt(options.getOrDefault("--seconds", "10"));
+         SimulationHost host = new SimulationHost(workers);
+ 
+         // Each entry is file[:priority[:cpuBudget]]
+         for (String entry : options.get("--host").split(",")) {
+             String[] parts = entry.split(":");
+             int priority = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+             double cpuBudget = parts.length > 2 ? Double.parseDouble(parts[2]) : 1.0;
+ 
+             Canvas canvas = new Canvas(new JLabel(), options.containsKey("--compact"));
+             ScenarioLoader.load(Paths.get(parts[0]), canvas);
+             host.add(parts[0], canvas, priority, cpuBudget);
+         }
+ 
+         host.start();
+         try {
+             for (int i = 1; i <= seconds; i++) {
+                 Thread.sleep(1000);
+                 System.out.println("After " + i + " s:");
+                 for (SimulationHost.Instance instance : host.instances()) {
+                     System.out.println("  " + instance);
+                 }
+             }
+         } catch (InterruptedException e) {
+             Thread.currentThread().interrupt();
+         } finally {
+             host.close();
+         }
+     }
+ 
      // Create and configure the main JFrame
      private static JFrame createAndConfigureFrame() {
          JFrame frame = new JFrame("Particle Simulator");
@@ -77,6 +196,23 @@
          return inputPanel;
      }
  
+     // Create the replay panel with a slider for seeking through the recording
+     private static JPanel createReplayPanel(Canvas canvas, SimulationReplay replay) {
+         JPanel replayPanel = new JPanel(new BorderLayout());
+ 
+         Border roundedBorder = BorderFactory.createLineBorder(Color.GRAY, 2, true);
+         String title = "Replay (" + replay.frameCount() + " frames over " + (replay.lastTick() + 1) + " ticks)";
+         TitledBorder titleBorder = new TitledBorder(roundedBorder, title, TitledBorder.CENTER, TitledBorder.DEFAULT_POSITION);
+         replayPanel.setBorder(titleBorder);
+ 
+         // Seeks by tick, so gaps left by dropped frames keep their length
+         JSlider seekSlider = new JSlider(0, (int) replay.lastTick(), 0);
+         seekSlider.addChangeListener(e -> canvas.seekReplay(seekSlider.getValue()));
+         replayPanel.add(seekSlider, BorderLayout.CENTER);
+         replayPanel.setPreferredSize(new Dimension(1280, 205));
+         return replayPanel;
+     }
+ 
      // Create a scroll pane for the input panels
      private static JScrollPane createScrollPane(JPanel inputPanel) {
          JScrollPane scrollPane = new JScrollPane(inputPanel);
@@ -161,12 +297,10 @@
                  double velocity = Double.parseDouble(t[5].getText());
  
                  // Validate number of particles
-                 if (n < 1) throw new IllegalArgumentException("There must be at least 1 particle.");
+                 InputValidation.checkParticleCount(n);
  
                  // Validate x and y ranges
-                 if (x1 < 0 || x1 > 1280 || x2 < 0 || x2 > 1280 || y1 < 0 || y1 > 720 || y2 < 0 || y2 > 720) {
-                     throw new IllegalArgumentException("Ensure that X falls within the range of 0 to 1280, and Y falls within the range of 0 to 720.");
-                 }
+                 InputValidation.checkPoints(x1, y1, x2, y2);
  
                  c.particlesCase1(n, x1, y1, x2, y2, angle, velocity);
              } catch (NumberFormatException ex) {
@@ -192,12 +326,10 @@
                  double velocity = Double.parseDouble(t[5].getText());
  
                  // Validate number of particles
-                 if (n < 1) throw new IllegalArgumentException("There must be at least 1 particle.");
+                 InputValidation.checkParticleCount(n);
  
                  // Validate x and y ranges
-                 if (x < 0 || x > 1280 || y < 0 || y > 720) {
-                     throw new IllegalArgumentException("Ensure that X falls within the range of 0 to 1280, and Y falls within the range of 0 to 720.");
-                 }
+                 InputValidation.checkPoints(x, y);
  
                  c.particlesCase2(n, x, y, startAngle, endAngle, velocity);
              } catch (NumberFormatException ex) {
@@ -223,12 +355,10 @@
                  double angle = Double.parseDouble(t[5].getText());
  
                  // Validate number of particles
-                 if (n < 1) throw new IllegalArgumentException("There must be at least 1 particle.");
+                 InputValidation.checkParticleCount(n);
  
                  // Validate x and y ranges
-                 if (x < 0 || x > 1280 || y < 0 || y > 720) {
-                     throw new IllegalArgumentException("Ensure that X falls within the range of 0 to 1280, and Y falls within the range of 0 to 720.");
-                 }
+                 InputValidation.checkPoints(x, y);
  
                  c.particlesCase3(n, x, y, angle, startVelocity, endVelocity);
              } catch (NumberFormatException ex) {
@@ -269,9 +399,7 @@
                  int y2 = Integer.parseInt(y2Field.getText());
  
                  // Validate x and y ranges for walls
-                 if (x1 < 0 || x1 > 1280 || x2 < 0 || x2 > 1280 || y1 < 0 || y1 > 720 || y2 < 0 || y2 > 720) {
-                     throw new IllegalArgumentException("Ensure that X falls within the range of 0 to 1280, and Y falls within the range of 0 to 720.");
-                 }
+                 InputValidation.checkPoints(x1, y1, x2, y2);
  
                  canvas.addWall(new Wall(x1, y1, x2, y2));
              } catch (NumberFormatException ex) {
@@ -0,0 +1,59 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.util.List;
+ class ParticleSnapshot {
+    // Particle positions
+    final int count;
+    final int[] xs;
+    final int[] ys;
+
+    // Wall endpoints, packed as x1, y1, x2, y2 per wall
+    final int[] walls;
+
+    // Constructor to initialize snapshot contents
+    public ParticleSnapshot(int count, int[] xs, int[] ys, int[] walls) {
+        this.count = count;
+        this.xs = xs;
+        this.ys = ys;
+        this.walls = walls;
+    }
+
+    // Copies the current particle positions and walls (caller holds the particles lock)
+    public static ParticleSnapshot capture(List<Particle> particles, List<Wall> walls) {
+        int count = particles.size();
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            Particle particle = particles.get(i);
+            xs[i] = particle.x;
+            ys[i] = particle.y;
+        }
+
+        return new ParticleSnapshot(count, xs, ys, packWalls(walls));
+    }
+
+    // Packs wall endpoints into a flat array
+    static int[] packWalls(List<Wall> walls) {
+        Wall[] wallArray = walls.toArray(new Wall[0]);
+        int[] packed = new int[wallArray.length * 4];
+
+        for (int i = 0; i < wallArray.length; i++) {
+            packed[i * 4] = wallArray[i].x1;
+            packed[i * 4 + 1] = wallArray[i].y1;
+            packed[i * 4 + 2] = wallArray[i].x2;
+            packed[i * 4 + 3] = wallArray[i].y2;
+        }
+
+        return packed;
+    }
+
+    // Number of walls in the snapshot
+    public int wallCount() {
+        return walls.length / 4;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.io.IOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.List;
+
+ /***
+  * Loads particles and walls into a canvas from a text file, one
+  * command per line, using the same parameters as the input panels:
+  *
+  *   case1 n x1 y1 x2 y2 angle velocity
+  *   case2 n x y startAngle endAngle velocity
+  *   case3 n x y angle startVelocity endVelocity
+  *   wall x1 y1 x2 y2
+  *
+  * Blank lines and lines starting with # are ignored.
+  */
+ class ScenarioLoader {
+    private ScenarioLoader() {
+    }
+
+    // Reads the scenario file and applies each command to the canvas
+    static void load(Path file, Canvas canvas) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            try {
+                apply(line.split("\\s+"), canvas);
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": Input is invalid. Please provide valid numerical values.");
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    // Applies a single scenario command
+    private static void apply(String[] t, Canvas canvas) {
+        switch (t[0]) {
+            case "case1": {
+                expectArguments(t, 7);
+                int n = Integer.parseInt(t[1]);
+                int x1 = Integer.parseInt(t[2]);
+                int y1 = Integer.parseInt(t[3]);
+                int x2 = Integer.parseInt(t[4]);
+                int y2 = Integer.parseInt(t[5]);
+                InputValidation.checkParticleCount(n);
+                InputValidation.checkPoints(x1, y1, x2, y2);
+                canvas.particlesCase1(n, x1, y1, x2, y2, Double.parseDouble(t[6]), Double.parseDouble(t[7]));
+                break;
+            }
+            case "case2": {
+                expectArguments(t, 6);
+                int n = Integer.parseInt(t[1]);
+                int x = Integer.parseInt(t[2]);
+                int y = Integer.parseInt(t[3]);
+                InputValidation.checkParticleCount(n);
+                InputValidation.checkPoints(x, y);
+                canvas.particlesCase2(n, x, y, Double.parseDouble(t[4]), Double.parseDouble(t[5]), Double.parseDouble(t[6]));
+                break;
+            }
+            case "case3": {
+                expectArguments(t, 6);
+                int n = Integer.parseInt(t[1]);
+                int x = Integer.parseInt(t[2]);
+                int y = Integer.parseInt(t[3]);
+                InputValidation.checkParticleCount(n);
+                InputValidation.checkPoints(x, y);
+                canvas.particlesCase3(n, x, y, Double.parseDouble(t[4]), Double.parseDouble(t[5]), Double.parseDouble(t[6]));
+                break;
+            }
+            case "wall": {
+                expectArguments(t, 4);
+                int x1 = Integer.parseInt(t[1]);
+                int y1 = Integer.parseInt(t[2]);
+                int x2 = Integer.parseInt(t[3]);
+                int y2 = Integer.parseInt(t[4]);
+                InputValidation.checkPoints(x1, y1, x2, y2);
+                canvas.addWall(new Wall(x1, y1, x2, y2));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown command \"" + t[0] + "\".");
+        }
+    }
+
+    // Validates the number of arguments after the command name
+    private static void expectArguments(String[] t, int count) {
+        if (t.length != count + 1) {
+            throw new IllegalArgumentException("\"" + t[0] + "\" expects " + count + " values.");
+        }
+    }
+}
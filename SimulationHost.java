@@ -0,0 +1,269 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.lang.management.ManagementFactory;
+ import java.lang.management.ThreadMXBean;
+ import java.util.ArrayList;
+ import java.util.Comparator;
+ import java.util.List;
+ import java.util.concurrent.*;
+ import java.util.concurrent.atomic.AtomicBoolean;
+ import java.util.concurrent.atomic.AtomicInteger;
+ import java.util.concurrent.atomic.AtomicLong;
+
+ /***
+  * Runs many independent simulations on one shared pool of worker
+  * threads, instead of each Canvas starting its own scheduler and
+  * using the common pool. Every frame, the ticks of all instances
+  * that are due are submitted together, ordered by priority-weighted
+  * CPU time so that no instance starves. Each instance has a CPU
+  * budget in cores; an instance that has used up its budget skips
+  * ticks until it is refilled. A large instance with a budget above
+  * one core has its tick split into batches across idle workers.
+  */
+ class SimulationHost implements AutoCloseable {
+    // Same 60 FPS tick rate as Canvas.startSimulation
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    // Unused budget carries over for at most this many frames
+    private static final int BUDGET_BURST_FRAMES = 4;
+
+    // Smallest number of particles worth giving a batch of its own
+    private static final int PARTICLES_PER_BATCH = 10_000;
+
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final ExecutorService workers;
+    private final int workerCount;
+
+    // Workers held by running ticks; a split tick holds its batches plus the thread waiting for them
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor();
+    private final List<Instance> instances = new CopyOnWriteArrayList<>();
+
+    // Constructor to create the shared worker pool
+    public SimulationHost(int workerThreads) {
+        workerCount = Math.max(1, workerThreads);
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    // Adds a simulation; priority weights its share of CPU, cpuBudget is in cores
+    public Instance add(String name, Canvas canvas, int priority, double cpuBudget) {
+        if (priority < 1) throw new IllegalArgumentException("Priority must be at least 1.");
+        if (cpuBudget <= 0) throw new IllegalArgumentException("CPU budget must be positive.");
+        if (cpuBudget > workerCount) {
+            throw new IllegalArgumentException("CPU budget cannot exceed the " + workerCount + " worker threads.");
+        }
+
+        Instance instance = new Instance(name, canvas, priority, cpuBudget, workers);
+        instances.add(instance);
+        return instance;
+    }
+
+    // Registered simulations
+    public List<Instance> instances() {
+        return new ArrayList<>(instances);
+    }
+
+    // Start dispatching ticks
+    public void start() {
+        dispatcher.scheduleAtFixedRate(this::dispatchFrame, 0, FRAME_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    // Submits one tick for every instance that is due and within budget
+    private void dispatchFrame() {
+        List<Instance> due = new ArrayList<>();
+
+        for (Instance instance : instances) {
+            instance.refillBudget();
+
+            if (instance.running.get()) {
+                instance.lateTicks.incrementAndGet();
+            } else if (instance.budgetNanos.get() <= 0) {
+                instance.throttledTicks.incrementAndGet();
+            } else {
+                due.add(instance);
+            }
+        }
+
+        // Least weighted CPU time first, so heavier instances cannot crowd out the rest
+        due.sort(Comparator.comparingDouble(Instance::weightedCpuNanos));
+
+        for (Instance instance : due) {
+            int batches = batchCount(instance);
+            int held = batches == 1 ? 1 : batches + 1;
+
+            busyWorkers.addAndGet(held);
+            instance.running.set(true);
+            workers.execute(() -> {
+                try {
+                    instance.tick(batches);
+                } finally {
+                    busyWorkers.addAndGet(-held);
+                }
+            });
+        }
+    }
+
+    // Number of batches for the next tick, limited by particle count, CPU budget and idle workers
+    private int batchCount(Instance instance) {
+        int wanted = Math.min((int) Math.ceil(instance.cpuBudget),
+                (instance.canvas.particleCount() + PARTICLES_PER_BATCH - 1) / PARTICLES_PER_BATCH);
+
+        // A split tick waits on its batches, so only split when every batch and the waiting thread fit;
+        // otherwise the waiting ticks could hold every worker while their batches sit in the queue
+        int idle = workerCount - busyWorkers.get();
+        int batches = Math.min(wanted, idle - 1);
+        return batches < 2 ? 1 : batches;
+    }
+
+    // Stops dispatching and waits for running ticks to finish
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+        workers.shutdown();
+
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /***
+     * A simulation running on the host, with its scheduling settings
+     * and metrics.
+     */
+    static class Instance {
+        final String name;
+        final Canvas canvas;
+        final int priority;
+        final double cpuBudget;
+
+        // Runs batches on the shared workers and counts their CPU time towards this instance
+        private final Executor batchExecutor;
+        private final AtomicLong batchCpuNanos = new AtomicLong();
+
+        // Scheduling state
+        private final AtomicBoolean running = new AtomicBoolean(false);
+        private final AtomicLong budgetNanos = new AtomicLong(0);
+
+        // Metrics
+        private final AtomicLong ticks = new AtomicLong();
+        private final AtomicLong throttledTicks = new AtomicLong();
+        private final AtomicLong lateTicks = new AtomicLong();
+        private final AtomicLong cpuNanos = new AtomicLong();
+        private final AtomicLong maxTickNanos = new AtomicLong();
+        private volatile long lastTickNanos;
+        private volatile int lastBatchCount = 1;
+
+        // Constructor to initialize instance settings
+        Instance(String name, Canvas canvas, int priority, double cpuBudget, Executor workers) {
+            this.name = name;
+            this.canvas = canvas;
+            this.priority = priority;
+            this.cpuBudget = cpuBudget;
+            this.batchExecutor = task -> workers.execute(() -> {
+                long start = cpuTime();
+                try {
+                    task.run();
+                } finally {
+                    batchCpuNanos.addAndGet(cpuTime() - start);
+                }
+            });
+        }
+
+        // Adds one frame's worth of CPU budget, up to the burst limit
+        private void refillBudget() {
+            long perFrame = (long) (cpuBudget * FRAME_NANOS);
+            budgetNanos.getAndUpdate(budget -> Math.min(budget + perFrame, perFrame * BUDGET_BURST_FRAMES));
+        }
+
+        // CPU time scaled down by priority
+        private double weightedCpuNanos() {
+            return (double) cpuNanos.get() / priority;
+        }
+
+        // Runs one simulation tick in the given number of batches and records its cost
+        private void tick(int batches) {
+            try {
+                canvas.useWorkers(batchExecutor, batches);
+                lastBatchCount = batches;
+
+                long batchStart = batchCpuNanos.get();
+                long start = cpuTime();
+                canvas.updateParticles();
+                long elapsed = cpuTime() - start + batchCpuNanos.get() - batchStart;
+
+                budgetNanos.addAndGet(-elapsed);
+                cpuNanos.addAndGet(elapsed);
+                maxTickNanos.accumulateAndGet(elapsed, Math::max);
+                lastTickNanos = elapsed;
+                ticks.incrementAndGet();
+
+                if (canvas.isShowing()) {
+                    canvas.repaint();
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+
+        // CPU time of the current thread, or wall time if unsupported
+        private static long cpuTime() {
+            return THREAD_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+        }
+
+        // Number of completed ticks
+        public long getTicks() {
+            return ticks.get();
+        }
+
+        // Ticks skipped because the CPU budget was used up
+        public long getThrottledTicks() {
+            return throttledTicks.get();
+        }
+
+        // Ticks skipped because the previous tick was still running
+        public long getLateTicks() {
+            return lateTicks.get();
+        }
+
+        // Total CPU time spent in ticks
+        public long getCpuNanos() {
+            return cpuNanos.get();
+        }
+
+        // CPU time of the most recent tick
+        public long getLastTickNanos() {
+            return lastTickNanos;
+        }
+
+        // Number of batches the most recent tick was split into
+        public int getLastBatchCount() {
+            return lastBatchCount;
+        }
+
+        // Slowest tick so far
+        public long getMaxTickNanos() {
+            return maxTickNanos.get();
+        }
+
+        // Average CPU time per tick in milliseconds
+        public double getAverageTickMillis() {
+            long completed = ticks.get();
+            return completed == 0 ? 0 : cpuNanos.get() / (completed * 1_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-20s prio %2d budget %.2f  particles %7d  batches %2d  active %7d  resting %7d  no-collide %7d  ticks %7d  throttled %6d  late %6d  avg %.3f ms  max %.3f ms",
+                    name, priority, cpuBudget, canvas.particleCount(), getLastBatchCount(), canvas.getActiveParticleCount(), canvas.getRestingParticleCount(),
+                    canvas.getCollisionSkippedCount(), getTicks(), getThrottledTicks(), getLateTicks(),
+                    getAverageTickMillis(), getMaxTickNanos() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.io.BufferedOutputStream;
+ import java.io.DataOutputStream;
+ import java.io.IOException;
+ import java.nio.file.Files;
+ import java.nio.file.Path;
+ import java.util.Arrays;
+ import java.util.concurrent.ArrayBlockingQueue;
+ import java.util.concurrent.BlockingQueue;
+ import java.util.concurrent.TimeUnit;
+ import java.util.concurrent.atomic.AtomicLong;
+
+ /***
+  * Records particle state to a compact binary file. Frames are
+  * captured on the tick thread and encoded on a separate writer
+  * thread, so recording never blocks the simulation. A keyframe
+  * stores absolute positions; the frames in between store per
+  * particle deltas quantized to one byte per axis. Every frame
+  * carries its tick number, so frames dropped while the writer was
+  * behind show up as gaps in the timeline.
+  */
+ class SimulationRecorder implements AutoCloseable {
+    // File format constants
+    static final int MAGIC = 0x50535231; // "PSR1"
+    static final short VERSION = 2;
+    static final byte KEYFRAME = 0;
+    static final byte DELTA = 1;
+
+    // Keyframe every second of simulation at 60 ticks per second
+    private static final int KEYFRAME_INTERVAL = 60;
+    private static final int QUEUE_CAPACITY = 256;
+
+    // Frame header sizes: type, tick and particle count, plus the wall count for keyframes
+    static final int DELTA_HEADER_BYTES = 13;
+    static final int KEYFRAME_HEADER_BYTES = 17;
+
+    // Marks the end of the capture queue
+    private static final Frame END_OF_STREAM = new Frame(-1, null);
+
+    private final DataOutputStream out;
+    private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+    private volatile IOException writeError;
+
+    // Tick number of the next capture, counted on the tick thread
+    private long nextTick = 0;
+
+    // Recording statistics
+    private final AtomicLong capturedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    // Last written state, used by the writer thread for delta encoding
+    private ParticleSnapshot previous;
+    private int framesSinceKeyframe = 0;
+
+    // Constructor to open the recording and start the writer thread
+    public SimulationRecorder(Path file, int canvasWidth, int canvasHeight) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(canvasWidth);
+        out.writeShort(canvasHeight);
+
+        writerThread = new Thread(this::writeLoop, "simulation-recorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Queues a snapshot for writing; drops it if the writer is behind, ignores it once writing has failed
+    public void capture(ParticleSnapshot snapshot) {
+        if (closed || writeError != null) return;
+
+        if (queue.offer(new Frame(nextTick++, snapshot))) {
+            capturedFrames.incrementAndGet();
+        } else {
+            droppedFrames.incrementAndGet();
+        }
+    }
+
+    // Number of frames handed to the writer
+    public long getCapturedFrames() {
+        return capturedFrames.get();
+    }
+
+    // Number of frames dropped because the writer queue was full
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    // Writes queued snapshots until the end-of-stream marker arrives
+    private void writeLoop() {
+        try {
+            while (true) {
+                Frame frame = queue.take();
+                if (frame == END_OF_STREAM) break;
+                writeFrame(frame.tick, frame.snapshot);
+            }
+            out.flush();
+        } catch (IOException e) {
+            writeError = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes a keyframe or a delta frame depending on the previous state
+    private void writeFrame(long tick, ParticleSnapshot snapshot) throws IOException {
+        if (needsKeyframe(snapshot)) {
+            writeKeyframe(tick, snapshot);
+            framesSinceKeyframe = 0;
+        } else {
+            writeDelta(tick, snapshot);
+            framesSinceKeyframe++;
+        }
+
+        previous = snapshot;
+    }
+
+    // Checks if the snapshot cannot be expressed as a delta of the previous one
+    private boolean needsKeyframe(ParticleSnapshot snapshot) {
+        if (previous == null || framesSinceKeyframe + 1 >= KEYFRAME_INTERVAL) return true;
+        if (previous.count != snapshot.count) return true;
+        if (!Arrays.equals(previous.walls, snapshot.walls)) return true;
+
+        for (int i = 0; i < snapshot.count; i++) {
+            if (!fitsInByte(snapshot.xs[i] - previous.xs[i]) || !fitsInByte(snapshot.ys[i] - previous.ys[i])) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Checks if a delta can be stored in a single signed byte
+    private boolean fitsInByte(int delta) {
+        return delta >= Byte.MIN_VALUE && delta <= Byte.MAX_VALUE;
+    }
+
+    // Writes absolute positions and walls
+    private void writeKeyframe(long tick, ParticleSnapshot snapshot) throws IOException {
+        out.writeByte(KEYFRAME);
+        out.writeLong(tick);
+        out.writeInt(snapshot.count);
+        out.writeInt(snapshot.wallCount());
+
+        for (int value : snapshot.walls) {
+            out.writeShort(value);
+        }
+
+        for (int i = 0; i < snapshot.count; i++) {
+            out.writeShort(snapshot.xs[i]);
+            out.writeShort(snapshot.ys[i]);
+        }
+    }
+
+    // Writes per-particle movement since the previous frame
+    private void writeDelta(long tick, ParticleSnapshot snapshot) throws IOException {
+        out.writeByte(DELTA);
+        out.writeLong(tick);
+        out.writeInt(snapshot.count);
+
+        for (int i = 0; i < snapshot.count; i++) {
+            out.writeByte(snapshot.xs[i] - previous.xs[i]);
+            out.writeByte(snapshot.ys[i] - previous.ys[i]);
+        }
+    }
+
+    // Drains pending frames and closes the file
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        try {
+            // A writer that stopped on an error no longer drains the queue, so never wait on a dead one
+            boolean queued = false;
+            while (!queued && writerThread.isAlive()) {
+                queued = queue.offer(END_OF_STREAM, 100, TimeUnit.MILLISECONDS);
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queue.clear();
+            closeOutput();
+        }
+
+        if (writeError != null) throw writeError;
+    }
+
+    // Closes the file, keeping the first write error as the one reported
+    private void closeOutput() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (writeError == null) {
+                writeError = e;
+            } else {
+                writeError.addSuppressed(e);
+            }
+        }
+    }
+
+    // A captured snapshot and the tick it was taken at
+    private static class Frame {
+        final long tick;
+        final ParticleSnapshot snapshot;
+
+        Frame(long tick, ParticleSnapshot snapshot) {
+            this.tick = tick;
+            this.snapshot = snapshot;
+        }
+    }
+}
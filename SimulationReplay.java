@@ -0,0 +1,251 @@
+/**
+ * STDISCM S11
+ * Gabriel Angelo M. Gerardino
+ * Jaira Millicent M. Santos
+ */
+
+ import java.io.IOException;
+ import java.nio.ByteBuffer;
+ import java.nio.MappedByteBuffer;
+ import java.nio.channels.FileChannel;
+ import java.nio.file.Path;
+ import java.nio.file.StandardOpenOption;
+ import java.util.ArrayList;
+ import java.util.List;
+
+ /***
+  * Replays a file written by SimulationRecorder. The file is
+  * memory-mapped in windows, so recordings larger than 2 GB can be
+  * opened, and indexed once on open, so any frame can be reached by
+  * decoding forward from the nearest keyframe.
+  */
+ class SimulationReplay implements AutoCloseable {
+    // Size of each mapped region; a frame larger than this gets a window of its own
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long fileSize;
+
+    // Currently mapped region of the file
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+
+    // Recorded canvas dimensions
+    final int canvasWidth;
+    final int canvasHeight;
+
+    // Frame index
+    private final long[] frameOffsets;
+    private final long[] frameTicks;
+    private final int[] keyframeIndices;
+
+    // Last decoded frame, reused for sequential playback
+    private int lastFrameIndex = -1;
+    private ParticleSnapshot lastFrame;
+
+    // Constructor to map the file and build the frame index
+    public SimulationReplay(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+
+        if (fileSize < 10) {
+            channel.close();
+            throw new IOException("Not a simulation recording: " + file);
+        }
+
+        ByteBuffer header = read(0, 10);
+        if (header.getInt() != SimulationRecorder.MAGIC) {
+            channel.close();
+            throw new IOException("Not a simulation recording: " + file);
+        }
+
+        short version = header.getShort();
+        if (version != SimulationRecorder.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported recording version: " + version);
+        }
+
+        canvasWidth = header.getShort();
+        canvasHeight = header.getShort();
+
+        List<Long> offsets = new ArrayList<>();
+        List<Long> ticks = new ArrayList<>();
+        List<Integer> keyframes = new ArrayList<>();
+        buildIndex(10, offsets, ticks, keyframes);
+
+        frameOffsets = offsets.stream().mapToLong(Long::longValue).toArray();
+        frameTicks = ticks.stream().mapToLong(Long::longValue).toArray();
+        keyframeIndices = keyframes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Returns a buffer positioned at offset with at least length bytes, remapping the window if needed
+    private ByteBuffer read(long offset, int length) throws IOException {
+        if (window == null || offset < windowStart || offset + length > windowStart + window.capacity()) {
+            long size = Math.min(fileSize - offset, Math.max(WINDOW_SIZE, length));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            windowStart = offset;
+        }
+
+        ByteBuffer view = window.duplicate();
+        view.position((int) (offset - windowStart));
+        return view;
+    }
+
+    // Scans frame headers and records where each frame starts
+    private void buildIndex(long position, List<Long> offsets, List<Long> ticks, List<Integer> keyframes) throws IOException {
+        while (position + SimulationRecorder.DELTA_HEADER_BYTES <= fileSize) {
+            ByteBuffer header = read(position, SimulationRecorder.DELTA_HEADER_BYTES);
+            byte type = header.get();
+            long tick = header.getLong();
+            int count = header.getInt();
+            long size;
+
+            if (type == SimulationRecorder.KEYFRAME) {
+                if (position + SimulationRecorder.KEYFRAME_HEADER_BYTES > fileSize) break;
+                int wallCount = read(position + SimulationRecorder.DELTA_HEADER_BYTES, 4).getInt();
+                size = SimulationRecorder.KEYFRAME_HEADER_BYTES + wallCount * 8L + count * 4L;
+            } else {
+                size = SimulationRecorder.DELTA_HEADER_BYTES + count * 2L;
+            }
+
+            // Stop at a truncated trailing frame
+            if (position + size > fileSize) break;
+
+            // Deltas are only usable after a keyframe
+            if (type == SimulationRecorder.KEYFRAME) {
+                keyframes.add(offsets.size());
+            } else if (keyframes.isEmpty()) {
+                break;
+            }
+
+            offsets.add(position);
+            ticks.add(tick);
+            position += size;
+        }
+    }
+
+    // Number of complete frames in the recording
+    public int frameCount() {
+        return frameOffsets.length;
+    }
+
+    // Tick number at which a frame was recorded
+    public long tickOf(int index) {
+        return frameTicks[index];
+    }
+
+    // Tick number of the last frame; ticks without a frame were dropped while recording
+    public long lastTick() {
+        return frameTicks.length == 0 ? 0 : frameTicks[frameTicks.length - 1];
+    }
+
+    // Finds the last frame recorded at or before the given tick
+    public int frameAtTick(long tick) {
+        int low = 0;
+        int high = frameTicks.length - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (frameTicks[mid] <= tick) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    // Decodes the frame at the given index
+    public synchronized ParticleSnapshot frame(int index) throws IOException {
+        if (index < 0 || index >= frameOffsets.length) {
+            throw new IndexOutOfBoundsException("Frame " + index + " of " + frameOffsets.length);
+        }
+
+        if (index == lastFrameIndex) return lastFrame;
+
+        // Decode forward from the cached frame when no keyframe lies in between
+        int keyframe = nearestKeyframe(index);
+        int start;
+        ParticleSnapshot frame;
+
+        if (lastFrameIndex >= keyframe && lastFrameIndex < index) {
+            start = lastFrameIndex + 1;
+            frame = lastFrame;
+        } else {
+            start = keyframe + 1;
+            frame = decodeKeyframe(frameOffsets[keyframe]);
+        }
+
+        for (int i = start; i <= index; i++) {
+            frame = applyDelta(frame, frameOffsets[i]);
+        }
+
+        lastFrameIndex = index;
+        lastFrame = frame;
+        return frame;
+    }
+
+    // Finds the last keyframe at or before the given frame
+    private int nearestKeyframe(int index) {
+        int low = 0;
+        int high = keyframeIndices.length - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (keyframeIndices[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return keyframeIndices[low];
+    }
+
+    // Reads absolute positions and walls
+    private ParticleSnapshot decodeKeyframe(long offset) throws IOException {
+        ByteBuffer header = read(offset + 9, 8);
+        int count = header.getInt();
+        int wallCount = header.getInt();
+        ByteBuffer frame = read(offset + SimulationRecorder.KEYFRAME_HEADER_BYTES, wallCount * 8 + count * 4);
+
+        int[] walls = new int[wallCount * 4];
+        for (int i = 0; i < walls.length; i++) {
+            walls[i] = frame.getShort();
+        }
+
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = frame.getShort();
+            ys[i] = frame.getShort();
+        }
+
+        return new ParticleSnapshot(count, xs, ys, walls);
+    }
+
+    // Applies the movement stored at the given offset, or decodes a keyframe
+    private ParticleSnapshot applyDelta(ParticleSnapshot previous, long offset) throws IOException {
+        if (read(offset, 1).get() == SimulationRecorder.KEYFRAME) {
+            return decodeKeyframe(offset);
+        }
+
+        ByteBuffer frame = read(offset + SimulationRecorder.DELTA_HEADER_BYTES, previous.count * 2);
+
+        int[] xs = new int[previous.count];
+        int[] ys = new int[previous.count];
+        for (int i = 0; i < previous.count; i++) {
+            xs[i] = previous.xs[i] + frame.get();
+            ys[i] = previous.ys[i] + frame.get();
+        }
+
+        return new ParticleSnapshot(previous.count, xs, ys, previous.walls);
+    }
+
+    // Closes the underlying file
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}